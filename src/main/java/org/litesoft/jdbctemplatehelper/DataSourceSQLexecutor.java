@@ -0,0 +1,306 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+import org.litesoft.annotations.NotNull;
+import org.litesoft.annotations.Positive;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowHandler;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowMapper;
+
+/**
+ * Lean (no Spring) executor that goes directly to a <code>DataSource</code>.
+ * <p>
+ * Arguments are bound (like Spring) with the typed setter chosen (once per argument Class) for the argument's type, result lists
+ * are sized from the expected rows, and within a connection scope (see <code>inConnectionScope</code>) a single
+ * connection is used and the idle prepared statements are reused (by SQL text, LRU bounded by
+ * <code>maxCachedStatements</code>). A statement that is still in use (e.g. a row handler that runs the same query)
+ * is never handed out again; a fresh one is prepared instead.
+ * <p>
+ * Note: outside a connection scope each call gets (and closes) its own connection, so no transaction spans calls.
+ */
+@SuppressWarnings({"unused", "SqlSourceToSinkFlow"})
+public class DataSourceSQLexecutor implements SQLexecutor {
+    public static final int DEFAULT_MAX_CACHED_STATEMENTS = 32;
+
+    private static final int DEFAULT_ROWS_EXPECTED = 10;
+
+    private static final ClassValue<ParameterBinder> BINDERS = new ClassValue<>() {
+        @Override
+        protected ParameterBinder computeValue( Class<?> type ) {
+            return binderFor( type );
+        }
+    };
+
+    private final ThreadLocal<ConnectionScope> scopes = new ThreadLocal<>();
+    private final DataSource dataSource;
+    private final int maxCachedStatements;
+
+    public DataSourceSQLexecutor( @NotNull DataSource dataSource, @Positive int maxCachedStatements ) {
+        this.dataSource = NotNull.AssertArgument.namedValue( "DataSource", dataSource );
+        this.maxCachedStatements = Positive.AssertArgument.namedValue( "maxCachedStatements", maxCachedStatements );
+    }
+
+    public DataSourceSQLexecutor( @NotNull DataSource dataSource ) {
+        this( dataSource, DEFAULT_MAX_CACHED_STATEMENTS );
+    }
+
+    /**
+     * Run <code>work</code> with all (this thread's) calls sharing a single connection and reusing prepared statements.
+     * Nested scopes simply join the outer scope.
+     */
+    public <R> R inConnectionScope( @NotNull Supplier<R> work ) {
+        NotNull.AssertArgument.namedValue( "work", work );
+        if ( scopes.get() != null ) {
+            return work.get();
+        }
+        ConnectionScope scope = new ConnectionScope( openConnection(), maxCachedStatements );
+        scopes.set( scope );
+        try {
+            return work.get();
+        }
+        finally {
+            scopes.remove();
+            scope.close();
+        }
+    }
+
+    public void runInConnectionScope( @NotNull Runnable work ) {
+        NotNull.AssertArgument.namedValue( "work", work );
+        inConnectionScope( () -> {
+            work.run();
+            return null;
+        } );
+    }
+
+    @Override
+    public int update( String sql, Object... args ) {
+        return execute( sql, args, PreparedStatement::executeUpdate );
+    }
+
+    @Override
+    public <R> List<R> query( String sql, ResultSetRowMapper<R> rowMapper, int rowsExpected, Object... args ) {
+        return execute( sql, args, ps -> {
+            try ( ResultSet rs = ps.executeQuery() ) {
+                List<R> results = new ArrayList<>( initialCapacity( rowsExpected ) );
+                for ( int rowNum = 0; rs.next(); rowNum++ ) {
+                    results.add( rowMapper.mapRow( rs, rowNum ) );
+                }
+                return results;
+            }
+        } );
+    }
+
+    @Override
+    public void query( String sql, ResultSetRowHandler rowHandler, Object... args ) {
+        execute( sql, args, ps -> {
+            try ( ResultSet rs = ps.executeQuery() ) {
+                while ( rs.next() ) {
+                    rowHandler.processRow( rs );
+                }
+                return null;
+            }
+        } );
+    }
+
+    @Override
+    public RuntimeException incorrectResultSize( String message, int expectedSize, int actualSize ) {
+        return new IncorrectResultSizeException( message, expectedSize, actualSize );
+    }
+
+    static int initialCapacity( int rowsExpected ) {
+        int bounded = SQLexecutor.boundedRowsExpected( rowsExpected );
+        return (bounded != UNKNOWN_ROWS) ? bounded : DEFAULT_ROWS_EXPECTED;
+    }
+
+    private <R> R execute( String sql, Object[] args, StatementWork<R> work ) {
+        try {
+            ConnectionScope scope = scopes.get();
+            if ( scope != null ) {
+                PreparedStatement ps = scope.acquire( sql );
+                boolean reusable = false;
+                try {
+                    R result = work.apply( bind( ps, args ) );
+                    reusable = true;
+                    return result;
+                }
+                finally {
+                    scope.release( sql, ps, reusable );
+                }
+            }
+            try ( Connection connection = dataSource.getConnection();
+                  PreparedStatement ps = connection.prepareStatement( sql ) ) {
+                return work.apply( bind( ps, args ) );
+            }
+        }
+        catch ( SQLException e ) {
+            throw new SQLexecutionException( "Failed executing: " + sql, e );
+        }
+    }
+
+    private Connection openConnection() {
+        try {
+            return dataSource.getConnection();
+        }
+        catch ( SQLException e ) {
+            throw new SQLexecutionException( "Unable to get Connection", e );
+        }
+    }
+
+    private static PreparedStatement bind( PreparedStatement ps, Object[] args )
+            throws SQLException {
+        if ( args != null ) {
+            for ( int i = 0; i < args.length; ) {
+                Object arg = args[i++]; // SQL 1 based!
+                if ( arg == null ) {
+                    bindNull( ps, i );
+                } else {
+                    BINDERS.get( arg.getClass() ).bind( ps, i, arg );
+                }
+            }
+        }
+        return ps;
+    }
+
+    /**
+     * Like Spring: use the driver's parameter type if it can provide it, otherwise <code>setObject( index, null )</code>
+     * (as <code>setNull( index, Types.NULL )</code> is rejected by some drivers, e.g. Oracle).
+     */
+    private static void bindNull( PreparedStatement ps, int index )
+            throws SQLException {
+        try {
+            ps.setNull( index, ps.getParameterMetaData().getParameterType( index ) );
+        }
+        catch ( SQLException | RuntimeException e ) {
+            ps.setObject( index, null );
+        }
+    }
+
+    private static ParameterBinder binderFor( Class<?> type ) {
+        if ( type == String.class ) {
+            return ( ps, index, value ) -> ps.setString( index, (String)value );
+        }
+        if ( type == Long.class ) {
+            return ( ps, index, value ) -> ps.setLong( index, (Long)value );
+        }
+        if ( type == Integer.class ) {
+            return ( ps, index, value ) -> ps.setInt( index, (Integer)value );
+        }
+        if ( type == Short.class ) {
+            return ( ps, index, value ) -> ps.setShort( index, (Short)value );
+        }
+        if ( type == Boolean.class ) {
+            return ( ps, index, value ) -> ps.setBoolean( index, (Boolean)value );
+        }
+        if ( type == Double.class ) {
+            return ( ps, index, value ) -> ps.setDouble( index, (Double)value );
+        }
+        if ( type == Float.class ) {
+            return ( ps, index, value ) -> ps.setFloat( index, (Float)value );
+        }
+        if ( type == BigDecimal.class ) {
+            return ( ps, index, value ) -> ps.setBigDecimal( index, (BigDecimal)value );
+        }
+        if ( type == Timestamp.class ) {
+            return ( ps, index, value ) -> ps.setTimestamp( index, (Timestamp)value );
+        }
+        if ( type == java.sql.Date.class ) {
+            return ( ps, index, value ) -> ps.setDate( index, (java.sql.Date)value );
+        }
+        if ( type == Time.class ) {
+            return ( ps, index, value ) -> ps.setTime( index, (Time)value );
+        }
+        if ( type == byte[].class ) {
+            return ( ps, index, value ) -> ps.setBytes( index, (byte[])value );
+        }
+        // Like Spring's StatementCreatorUtils: other Dates & Calendars as Timestamps, and CharSequences as Strings
+        if ( java.util.Date.class.isAssignableFrom( type ) ) {
+            return ( ps, index, value ) -> ps.setTimestamp( index, new Timestamp( ((java.util.Date)value).getTime() ) );
+        }
+        if ( Calendar.class.isAssignableFrom( type ) ) {
+            return ( ps, index, value ) -> {
+                Calendar calendar = (Calendar)value;
+                ps.setTimestamp( index, new Timestamp( calendar.getTimeInMillis() ), calendar );
+            };
+        }
+        if ( CharSequence.class.isAssignableFrom( type ) ) {
+            return ( ps, index, value ) -> ps.setString( index, value.toString() );
+        }
+        return PreparedStatement::setObject; // e.g. java.time types (JDBC 4.2), UUID, ...
+    }
+
+    private interface ParameterBinder {
+        void bind( PreparedStatement ps, int index, Object value )
+                throws SQLException;
+    }
+
+    private interface StatementWork<R> {
+        R apply( PreparedStatement ps )
+                throws SQLException;
+    }
+
+    private static class ConnectionScope {
+        private final Map<String, PreparedStatement> idleStatements; // LRU, in use statements are NOT in the map
+        private final Connection connection;
+
+        ConnectionScope( Connection connection, int maxCachedStatements ) {
+            this.connection = connection;
+            idleStatements = new LinkedHashMap<>( 16, 0.75f, true ) {
+                @Override
+                protected boolean removeEldestEntry( Map.Entry<String, PreparedStatement> eldest ) {
+                    if ( size() <= maxCachedStatements ) {
+                        return false;
+                    }
+                    closeQuietly( eldest.getValue() );
+                    return true;
+                }
+            };
+        }
+
+        PreparedStatement acquire( String sql )
+                throws SQLException {
+            PreparedStatement ps = idleStatements.remove( sql );
+            if ( ps == null ) {
+                return connection.prepareStatement( sql );
+            }
+            ps.clearParameters();
+            return ps;
+        }
+
+        void release( String sql, PreparedStatement ps, boolean reusable ) {
+            if ( !reusable || idleStatements.containsKey( sql ) ) { // failed, or a nested duplicate already returned
+                closeQuietly( ps );
+            } else {
+                idleStatements.put( sql, ps );
+            }
+        }
+
+        void close() {
+            for ( PreparedStatement ps : idleStatements.values() ) {
+                closeQuietly( ps );
+            }
+            closeQuietly( connection );
+        }
+
+        private static void closeQuietly( AutoCloseable closeable ) {
+            try {
+                closeable.close();
+            }
+            catch ( Exception ignore ) {
+                // Nothing useful to do on cleanup
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.litesoft.jdbctemplatehelper;
+
+import lombok.Getter;
+
+@Getter
+@SuppressWarnings("unused")
+public class IncorrectResultSizeException extends RuntimeException {
+    private final int expectedSize;
+    private final int actualSize;
+
+    public IncorrectResultSizeException( String message, int expectedSize, int actualSize ) {
+        super( message );
+        this.expectedSize = expectedSize;
+        this.actualSize = actualSize;
+    }
+}
@@ -0,0 +1,61 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.util.List;
+
+import org.litesoft.annotations.NotNull;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowHandler;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowMapper;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@SuppressWarnings("SqlSourceToSinkFlow")
+public class JdbcTemplateSQLexecutor implements SQLexecutor {
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcTemplateSQLexecutor( @NotNull JdbcTemplate jdbcTemplate ) {
+        this.jdbcTemplate = NotNull.AssertArgument.namedValue( "JdbcTemplate", jdbcTemplate );
+    }
+
+    @Override
+    public int update( String sql, Object... args ) {
+        return jdbcTemplate.update( sql, args );
+    }
+
+    @Override
+    public <R> List<R> query( String sql, ResultSetRowMapper<R> rowMapper, int rowsExpected, Object... args ) {
+        int rowsHint = SQLexecutor.boundedRowsExpected( rowsExpected );
+        List<R> result = jdbcTemplate.query( sql, new RowMapperResultSetExtractor<>( rowMapper::mapRow, rowsHint ), args );
+        return (result != null) ? result : List.of();
+    }
+
+    @Override
+    public void query( String sql, ResultSetRowHandler rowHandler, Object... args ) {
+        jdbcTemplate.query( sql, (RowCallbackHandler)rowHandler::processRow, args );
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    @Override
+    public void afterTransactionCompletion( Runnable action ) {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+                @Override
+                public void afterCompletion( int status ) {
+                    action.run();
+                }
+            } );
+        }
+    }
+
+    @Override
+    public RuntimeException incorrectResultSize( String message, int expectedSize, int actualSize ) {
+        return new IncorrectResultSizeDataAccessException( message, expectedSize, actualSize );
+    }
+}
@@ -0,0 +1,188 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.litesoft.annotations.NotNull;
+import org.litesoft.annotations.Nullable;
+import org.litesoft.annotations.Significant;
+
+/**
+ * Maps a single JOIN query into a parent entity graph (parent plus child collections) - one round trip instead of 1+N.
+ * <p>
+ * Each participating <code>SQLhelper</code> contributes its columns (aliased by table alias and prefixed with
+ * "alias_" to keep them unique), the parents are de-duplicated by ID (in result order), and each distinct child
+ * (by ID) is handed to its parent via the user supplied attach function.
+ * <p>
+ * Both the parent and the children MUST have an ID column. Children joined with a LEFT JOIN that have no row
+ * (NULL ID) are simply not attached.
+ *
+ * @param <PT> Parent ID type
+ * @param <P>  Parent entity type
+ */
+@SuppressWarnings("unused")
+public class JoinMapper<PT, P> {
+    private final SQLhelper<PT, P> parentHelper;
+    private final List<ChildJoin<P, ?, ?>> children;
+    private final String selectFrom;
+
+    public static <PT, P> Builder<PT, P> builder( @NotNull SQLhelper<PT, P> parentHelper, @Significant String parentAlias ) {
+        return new Builder<>( parentHelper, parentAlias );
+    }
+
+    private JoinMapper( SQLhelper<PT, P> parentHelper, String parentAlias, List<ChildJoin<P, ?, ?>> children ) {
+        this.parentHelper = parentHelper;
+        this.children = children;
+        StringBuilder sb = new StringBuilder().append( "SELECT" );
+        parentHelper.appendAliasedColumns( sb, parentAlias, parentAlias + "_" );
+        int nextColumnIndex = 1 + parentHelper.getColumnCount(); // SQL 1 based!
+        for ( ChildJoin<P, ?, ?> child : children ) {
+            sb.append( ',' );
+            child.helper.appendAliasedColumns( sb, child.alias, child.alias + "_" );
+            child.firstColumnIndex = nextColumnIndex;
+            nextColumnIndex += child.helper.getColumnCount();
+        }
+        sb.append( " FROM " ).append( parentHelper.getTableName() ).append( ' ' ).append( parentAlias );
+        for ( ChildJoin<P, ?, ?> child : children ) {
+            sb.append( ' ' ).append( child.joinType ).append( ' ' ).append( child.helper.getTableName() )
+                    .append( ' ' ).append( child.alias ).append( " ON " ).append( child.onCondition );
+        }
+        selectFrom = sb.toString();
+    }
+
+    /**
+     * @return the "SELECT ... FROM ... JOIN ..." portion of the SQL (no WHERE or ORDER BY).
+     */
+    public String getSelectFrom() {
+        return selectFrom;
+    }
+
+    /**
+     * Note: the WhereClause and orderBy need to reference the columns via the table aliases (e.g. "o.id = ?").
+     */
+    public @NotNull List<P> query( @Nullable WhereClause whereClause, @Nullable String orderBy ) {
+        whereClause = WhereClause.deNull( whereClause );
+        String sql = selectFrom + whereClause.getText() + SQLhelper.optionalOrderBy( orderBy );
+        return query( sql, whereClause.getQuestionMarkValues().toArray() );
+    }
+
+    /**
+     * @param sql must start with the <code>getSelectFrom()</code> text (so the column indexes line up).
+     */
+    public @NotNull List<P> query( String sql, Object... args ) {
+        GraphAssembler assembler = new GraphAssembler();
+        parentHelper.queryRows( sql, assembler::processRow, args );
+        return assembler.getParents();
+    }
+
+    private class GraphAssembler {
+        private final Map<PT, P> parentsByID = new LinkedHashMap<>();
+        private final Set<List<Object>> attached = new HashSet<>(); // [childIndex, parentID, childID]
+
+        void processRow( ResultSet rs )
+                throws SQLException {
+            PT parentID = parentHelper.readId( rs, 1 );
+            if ( parentID == null ) {
+                return;
+            }
+            P parent = parentsByID.get( parentID );
+            if ( parent == null ) {
+                parentsByID.put( parentID, parent = parentHelper.mapColumns( rs, 1 ) );
+            }
+            for ( int i = 0; i < children.size(); i++ ) {
+                ChildJoin<P, ?, ?> child = children.get( i );
+                Object childID = child.helper.readId( rs, child.firstColumnIndex );
+                if ( (childID != null) && attached.add( List.of( i, parentID, childID ) ) ) {
+                    child.mapAndAttach( parent, rs );
+                }
+            }
+        }
+
+        List<P> getParents() {
+            return new ArrayList<>( parentsByID.values() );
+        }
+    }
+
+    private static class ChildJoin<P, CT, C> {
+        private final String joinType;
+        private final SQLhelper<CT, C> helper;
+        private final String alias;
+        private final String onCondition;
+        private final BiConsumer<P, C> attach;
+        private int firstColumnIndex;
+
+        ChildJoin( String joinType, SQLhelper<CT, C> helper, String alias, String onCondition, BiConsumer<P, C> attach ) {
+            this.joinType = joinType;
+            this.helper = helper;
+            this.alias = alias;
+            this.onCondition = onCondition;
+            this.attach = attach;
+        }
+
+        void mapAndAttach( P parent, ResultSet rs )
+                throws SQLException {
+            attach.accept( parent, helper.mapColumns( rs, firstColumnIndex ) );
+        }
+    }
+
+    public static class Builder<PT, P> {
+        private final List<ChildJoin<P, ?, ?>> children = new ArrayList<>();
+        private final Set<String> aliases = new HashSet<>();
+        private final SQLhelper<PT, P> parentHelper;
+        private final String parentAlias;
+
+        public Builder( @NotNull SQLhelper<PT, P> parentHelper, @Significant String parentAlias ) {
+            this.parentHelper = NotNull.AssertArgument.namedValue( "parentHelper", parentHelper );
+            this.parentAlias = addAlias( Significant.AssertArgument.namedValue( "parentAlias", parentAlias ) );
+            parentHelper.assertEntityTypeHasID( "JoinMapper parent" );
+        }
+
+        /**
+         * @param joinType    e.g. "JOIN", "INNER JOIN", or "LEFT JOIN"
+         * @param onCondition e.g. "li.order_id = o.id"
+         * @param attach      called once per distinct (parent, child) pair, e.g. <code>Order::addLineItem</code>
+         */
+        public <CT, C> Builder<PT, P> join( @Significant String joinType, @NotNull SQLhelper<CT, C> childHelper,
+                                            @Significant String childAlias, @Significant String onCondition,
+                                            @NotNull BiConsumer<P, C> attach ) {
+            NotNull.AssertArgument.namedValue( "childHelper", childHelper ).assertEntityTypeHasID( "JoinMapper child" );
+            children.add( new ChildJoin<>( Significant.AssertArgument.namedValue( "joinType", joinType ),
+                                           childHelper,
+                                           addAlias( Significant.AssertArgument.namedValue( "childAlias", childAlias ) ),
+                                           Significant.AssertArgument.namedValue( "onCondition", onCondition ),
+                                           NotNull.AssertArgument.namedValue( "attach", attach ) ) );
+            return this;
+        }
+
+        public <CT, C> Builder<PT, P> join( @NotNull SQLhelper<CT, C> childHelper, @Significant String childAlias,
+                                            @Significant String onCondition, @NotNull BiConsumer<P, C> attach ) {
+            return join( "JOIN", childHelper, childAlias, onCondition, attach );
+        }
+
+        public <CT, C> Builder<PT, P> leftJoin( @NotNull SQLhelper<CT, C> childHelper, @Significant String childAlias,
+                                                @Significant String onCondition, @NotNull BiConsumer<P, C> attach ) {
+            return join( "LEFT JOIN", childHelper, childAlias, onCondition, attach );
+        }
+
+        public JoinMapper<PT, P> build() {
+            if ( children.isEmpty() ) {
+                throw new IllegalStateException( "No child (SQLhelper)s joined!" );
+            }
+            return new JoinMapper<>( parentHelper, parentAlias, List.copyOf( children ) );
+        }
+
+        private String addAlias( String alias ) {
+            if ( !aliases.add( alias ) ) {
+                throw new IllegalStateException( "Duplicate table alias: " + alias );
+            }
+            return alias;
+        }
+    }
+}
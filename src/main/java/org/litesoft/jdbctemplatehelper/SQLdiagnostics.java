@@ -0,0 +1,386 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+import org.litesoft.annotations.NotNull;
+import org.litesoft.annotations.Positive;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowHandler;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowMapper;
+import org.litesoft.jdbctemplatehelper.support.RingBuffer;
+
+/**
+ * Opt-in diagnostics (see <code>SQLhelper.Builder.withDiagnostics</code>), that wraps the <code>SQLexecutor</code> to:
+ * <ul>
+ *     <li>flag statements slower than the slow threshold, including failed ones (with their SQL, binds, row count,
+ *     and call site),</li>
+ *     <li>detect (within a scope, see <code>inScope</code>) the same query shape being repeated, e.g.
+ *     <code>readById</code> or <code>query1</code> in a loop (N+1), and report the call site, and</li>
+ *     <li>capture (sampled, and at most once per shape) the <code>EXPLAIN</code> output of slow queries.</li>
+ * </ul>
+ * The results go into a bounded ring buffer (see <code>dump</code>).
+ * <p>
+ * A query's shape is its SQL text with any literal <code>IN (...)</code> lists (e.g. from
+ * <code>getEntitiesByIDs</code>) normalized, and the shapes already EXPLAINed are LRU bounded by
+ * <code>maxExplainedShapes</code>.
+ * <p>
+ * When disabled, the wrapper only checks a (volatile) flag before delegating.
+ */
+@SuppressWarnings("unused")
+public class SQLdiagnostics {
+    public static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofMillis( 250 );
+    public static final int DEFAULT_REPEATED_QUERY_THRESHOLD = 5;
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final String DEFAULT_EXPLAIN_PREFIX = "EXPLAIN ";
+    public static final int DEFAULT_MAX_EXPLAINED_SHAPES = 1024;
+    public static final int FAILED_ROWS = -1;
+
+    private static final Pattern LITERAL_IN_LIST = Pattern.compile( "(?i)\\bIN\\s*\\([^()?]*\\)" );
+
+    public enum Kind {
+        SlowStatement, RepeatedQuery
+    }
+
+    /**
+     * @param rows    rows returned or affected (-1 if not applicable, <code>FAILED_ROWS</code> if the statement threw)
+     * @param repeats number of times the shape was executed in the scope (0 if not applicable)
+     * @param explain captured EXPLAIN output (null if not captured)
+     */
+    public record Event(Kind kind, Instant at, String sql, List<Object> binds, int rows, long elapsedNanos,
+                        int repeats, String callSite, String explain) {
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder().append( at ).append( ' ' ).append( kind ).append( ": " ).append( sql )
+                    .append( "\n  binds: " ).append( binds );
+            if ( rows >= 0 ) {
+                sb.append( ", rows: " ).append( rows );
+            }
+            if ( elapsedNanos > 0 ) {
+                sb.append( ", elapsed: " ).append( elapsedNanos / 1_000_000.0 ).append( "ms" );
+            }
+            if ( repeats > 0 ) {
+                sb.append( ", repeats: " ).append( repeats );
+            }
+            sb.append( "\n  at: " ).append( callSite );
+            if ( explain != null ) {
+                sb.append( "\n  explain:\n" ).append( explain );
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final Set<Class<?>> LIBRARY_CLASSES = Set.of( SQLhelper.class, JoinMapper.class, SQLdiagnostics.class );
+
+    private final ThreadLocal<Map<String, int[]>> scopes = new ThreadLocal<>(); // shape -> [count]
+    private final Set<String> explainedShapes;
+    private final RingBuffer<Event> events;
+    private final long slowThresholdNanos;
+    private final int repeatedQueryThreshold;
+    private final double explainSampleRate;
+    private final String explainPrefix;
+    private volatile boolean enabled;
+
+    private SQLdiagnostics( boolean enabled, long slowThresholdNanos, int repeatedQueryThreshold,
+                            double explainSampleRate, String explainPrefix, int capacity, int maxExplainedShapes ) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThresholdNanos;
+        this.repeatedQueryThreshold = repeatedQueryThreshold;
+        this.explainSampleRate = explainSampleRate;
+        this.explainPrefix = explainPrefix;
+        events = new RingBuffer<>( capacity );
+        explainedShapes = Collections.synchronizedSet( Collections.newSetFromMap( new LinkedHashMap<>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, Boolean> eldest ) {
+                return size() > maxExplainedShapes;
+            }
+        } ) );
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enable() {
+        enabled = true;
+    }
+
+    public void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Run <code>work</code> as a repeated query (N+1) detection scope. Nested scopes simply join the outer scope.
+     */
+    public <R> R inScope( @NotNull Supplier<R> work ) {
+        NotNull.AssertArgument.namedValue( "work", work );
+        if ( scopes.get() != null ) {
+            return work.get();
+        }
+        scopes.set( new HashMap<>() );
+        try {
+            return work.get();
+        }
+        finally {
+            scopes.remove();
+        }
+    }
+
+    public void runInScope( @NotNull Runnable work ) {
+        NotNull.AssertArgument.namedValue( "work", work );
+        inScope( () -> {
+            work.run();
+            return null;
+        } );
+    }
+
+    /**
+     * @return the retained events, oldest first
+     */
+    public List<Event> dump() {
+        return events.snapshot();
+    }
+
+    public String dumpText() {
+        StringBuilder sb = new StringBuilder().append( "SQL diagnostics (" ).append( events.getAdded() ).append( " events):" );
+        for ( Event event : dump() ) {
+            sb.append( '\n' ).append( event );
+        }
+        return sb.toString();
+    }
+
+    public void clear() {
+        events.clear();
+        explainedShapes.clear();
+    }
+
+    public @NotNull SQLexecutor wrap( @NotNull SQLexecutor executor ) {
+        return new DiagnosticExecutor( NotNull.AssertArgument.namedValue( "executor", executor ) );
+    }
+
+    private void checkRepeated( String sql, Object[] args ) {
+        Map<String, int[]> scope = scopes.get();
+        if ( scope != null ) {
+            int repeats = ++scope.computeIfAbsent( shape( sql ), k -> new int[1] )[0];
+            if ( repeats == repeatedQueryThreshold ) { // Only report once per shape per scope
+                events.add( new Event( Kind.RepeatedQuery, Instant.now(), sql, binds( args ), -1, 0,
+                                       repeats, callSite(), null ) );
+            }
+        }
+    }
+
+    private void checkSlow( SQLexecutor executor, boolean isQuery, String sql, Object[] args, int rows, long elapsedNanos ) {
+        if ( elapsedNanos >= slowThresholdNanos ) {
+            String explain = isQuery ? sampledExplain( executor, sql, args ) : null;
+            events.add( new Event( Kind.SlowStatement, Instant.now(), sql, binds( args ), rows, elapsedNanos,
+                                   0, callSite(), explain ) );
+        }
+    }
+
+    private String sampledExplain( SQLexecutor executor, String sql, Object[] args ) {
+        if ( (explainSampleRate <= 0.0) || (ThreadLocalRandom.current().nextDouble() >= explainSampleRate)
+             || !explainedShapes.add( shape( sql ) ) ) {
+            return null;
+        }
+        try {
+            return String.join( "\n", executor.query( explainPrefix + sql, SQLdiagnostics::explainRow,
+                                                      SQLexecutor.UNKNOWN_ROWS, args ) );
+        }
+        catch ( RuntimeException e ) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    static String shape( String sql ) {
+        return LITERAL_IN_LIST.matcher( sql ).replaceAll( "IN (...)" );
+    }
+
+    /**
+     * All the columns (e.g. MySQL's id, select_type, table, type, ...), labeled if there is more than one.
+     */
+    private static String explainRow( ResultSet rs, int rowNum )
+            throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columns = metaData.getColumnCount();
+        if ( columns == 1 ) {
+            return rs.getString( 1 );
+        }
+        StringBuilder sb = new StringBuilder();
+        String prefix = "";
+        for ( int i = 1; i <= columns; i++ ) {
+            sb.append( prefix ).append( metaData.getColumnLabel( i ) ).append( '=' ).append( rs.getString( i ) );
+            prefix = ", ";
+        }
+        return sb.toString();
+    }
+
+    private static List<Object> binds( Object[] args ) {
+        return (args == null) ? List.of() : Arrays.asList( args.clone() );
+    }
+
+    private static String callSite() {
+        return StackWalker.getInstance( StackWalker.Option.RETAIN_CLASS_REFERENCE ).walk(
+                frames -> frames.filter( frame -> !isLibraryClass( frame.getDeclaringClass() ) )
+                        .findFirst()
+                        .map( StackWalker.StackFrame::toString )
+                        .orElse( "?" ) );
+    }
+
+    private static boolean isLibraryClass( Class<?> declaringClass ) {
+        Class<?> host = declaringClass.getNestHost();
+        return LIBRARY_CLASSES.contains( host ) || SQLexecutor.class.isAssignableFrom( host );
+    }
+
+    private class DiagnosticExecutor implements SQLexecutor {
+        private final SQLexecutor delegate;
+
+        DiagnosticExecutor( SQLexecutor delegate ) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int update( String sql, Object... args ) {
+            if ( !enabled ) {
+                return delegate.update( sql, args );
+            }
+            return timed( false, sql, args, () -> delegate.update( sql, args ), Integer::intValue );
+        }
+
+        @Override
+        public <R> List<R> query( String sql, ResultSetRowMapper<R> rowMapper, int rowsExpected, Object... args ) {
+            if ( !enabled ) {
+                return delegate.query( sql, rowMapper, rowsExpected, args );
+            }
+            checkRepeated( sql, args );
+            return timed( true, sql, args, () -> delegate.query( sql, rowMapper, rowsExpected, args ), List::size );
+        }
+
+        @Override
+        public void query( String sql, ResultSetRowHandler rowHandler, Object... args ) {
+            if ( !enabled ) {
+                delegate.query( sql, rowHandler, args );
+                return;
+            }
+            checkRepeated( sql, args );
+            int[] rows = {0};
+            timed( true, sql, args, () -> {
+                delegate.query( sql, rs -> {
+                    rows[0]++;
+                    rowHandler.processRow( rs );
+                }, args );
+                return rows;
+            }, r -> r[0] );
+        }
+
+        /**
+         * A statement that fails is still checked (as slow, with <code>FAILED_ROWS</code> and no EXPLAIN), e.g. timeouts.
+         */
+        private <R> R timed( boolean isQuery, String sql, Object[] args, Supplier<R> statement, ToIntFunction<R> rows ) {
+            long started = System.nanoTime();
+            R result;
+            try {
+                result = statement.get();
+            }
+            catch ( RuntimeException e ) {
+                checkSlow( delegate, false, sql, args, FAILED_ROWS, System.nanoTime() - started );
+                throw e;
+            }
+            checkSlow( delegate, isQuery, sql, args, rows.applyAsInt( result ), System.nanoTime() - started );
+            return result;
+        }
+
+        @Override
+        public boolean isTransactionActive() {
+            return delegate.isTransactionActive();
+        }
+
+        @Override
+        public void afterTransactionCompletion( Runnable action ) {
+            delegate.afterTransactionCompletion( action );
+        }
+
+        @Override
+        public RuntimeException incorrectResultSize( String message, int expectedSize, int actualSize ) {
+            return delegate.incorrectResultSize( message, expectedSize, actualSize );
+        }
+    }
+
+    public static class Builder {
+        private boolean enabled = true;
+        private Duration slowThreshold = DEFAULT_SLOW_THRESHOLD;
+        private int repeatedQueryThreshold = DEFAULT_REPEATED_QUERY_THRESHOLD;
+        private double explainSampleRate;
+        private String explainPrefix = DEFAULT_EXPLAIN_PREFIX;
+        private int capacity = DEFAULT_CAPACITY;
+        private int maxExplainedShapes = DEFAULT_MAX_EXPLAINED_SHAPES;
+
+        public Builder enabled( boolean enabled ) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public Builder slowThreshold( @NotNull Duration slowThreshold ) {
+            this.slowThreshold = NotNull.AssertArgument.namedValue( "slowThreshold", slowThreshold );
+            return this;
+        }
+
+        public Builder repeatedQueryThreshold( @Positive int repeatedQueryThreshold ) {
+            this.repeatedQueryThreshold = Positive.AssertArgument.namedValue( "repeatedQueryThreshold", repeatedQueryThreshold );
+            return this;
+        }
+
+        /**
+         * @param explainSampleRate 0.0 (never - the default) to 1.0 (always, but still at most once per shape)
+         */
+        public Builder explainSampleRate( double explainSampleRate ) {
+            if ( (explainSampleRate < 0.0) || (1.0 < explainSampleRate) ) {
+                throw new IllegalArgumentException( "explainSampleRate must be 0.0 to 1.0, but was: " + explainSampleRate );
+            }
+            this.explainSampleRate = explainSampleRate;
+            return this;
+        }
+
+        /**
+         * @param explainPrefix e.g. "EXPLAIN " (the default), or "EXPLAIN QUERY PLAN " (SQLite)
+         */
+        public Builder explainPrefix( @NotNull String explainPrefix ) {
+            this.explainPrefix = NotNull.AssertArgument.namedValue( "explainPrefix", explainPrefix );
+            return this;
+        }
+
+        public Builder capacity( @Positive int capacity ) {
+            this.capacity = Positive.AssertArgument.namedValue( "capacity", capacity );
+            return this;
+        }
+
+        public Builder maxExplainedShapes( @Positive int maxExplainedShapes ) {
+            this.maxExplainedShapes = Positive.AssertArgument.namedValue( "maxExplainedShapes", maxExplainedShapes );
+            return this;
+        }
+
+        public SQLdiagnostics build() {
+            if ( slowThreshold.isNegative() ) {
+                throw new IllegalStateException( "slowThreshold must not be negative, but was: " + slowThreshold );
+            }
+            return new SQLdiagnostics( enabled, slowThreshold.toNanos(), repeatedQueryThreshold,
+                                       explainSampleRate, explainPrefix, capacity, maxExplainedShapes );
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.litesoft.jdbctemplatehelper;
+
+@SuppressWarnings("unused")
+public class SQLexecutionException extends RuntimeException {
+    public SQLexecutionException( String message ) {
+        super( message );
+    }
+
+    public SQLexecutionException( String message, Throwable cause ) {
+        super( message, cause );
+    }
+
+    public SQLexecutionException( Throwable cause ) {
+        super( cause );
+    }
+}
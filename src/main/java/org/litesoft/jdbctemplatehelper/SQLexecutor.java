@@ -0,0 +1,57 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.util.List;
+
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowHandler;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowMapper;
+
+/**
+ * The (pluggable) SQL execution used by <code>SQLhelper</code>.
+ * <p>
+ * Implementations: <code>JdbcTemplateSQLexecutor</code> (Spring) and <code>DataSourceSQLexecutor</code> (plain JDBC).
+ */
+public interface SQLexecutor {
+    int UNKNOWN_ROWS = 0;
+    int MAX_ROWS_EXPECTED = 1000;
+
+    /**
+     * @return <code>rowsExpected</code> (only a hint, e.g. a caller's LIMIT) constrained to
+     * <code>UNKNOWN_ROWS</code> thru <code>MAX_ROWS_EXPECTED</code>, so it is safe to pre-size a result list with
+     */
+    static int boundedRowsExpected( int rowsExpected ) {
+        return Math.max( UNKNOWN_ROWS, Math.min( rowsExpected, MAX_ROWS_EXPECTED ) );
+    }
+
+    /**
+     * @return rowsAffected
+     */
+    int update( String sql, Object... args );
+
+    /**
+     * @param rowsExpected a sizing hint for the result list (or <code>UNKNOWN_ROWS</code>), see <code>boundedRowsExpected</code>
+     *
+     * @return never null
+     */
+    <R> List<R> query( String sql, ResultSetRowMapper<R> rowMapper, int rowsExpected, Object... args );
+
+    void query( String sql, ResultSetRowHandler rowHandler, Object... args );
+
+    /**
+     * @return true if the calling thread is in a transaction (so uncommitted changes may be visible)
+     */
+    default boolean isTransactionActive() {
+        return false;
+    }
+
+    /**
+     * Arrange for <code>action</code> to be run when the calling thread's current transaction completes (commit or
+     * rollback). Without an active transaction (the default) nothing is pending, so nothing is done.
+     */
+    default void afterTransactionCompletion( Runnable action ) {
+    }
+
+    /**
+     * @return the exception (appropriate for the implementation) to throw
+     */
+    RuntimeException incorrectResultSize( String message, int expectedSize, int actualSize );
+}
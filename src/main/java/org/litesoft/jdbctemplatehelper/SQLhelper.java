@@ -17,16 +17,20 @@ import org.litesoft.annotations.SignificantOrEmpty;
 import org.litesoft.jdbctemplatehelper.support.ColumnFieldHelper;
 import org.litesoft.jdbctemplatehelper.support.ColumnTypeProducer;
 import org.litesoft.jdbctemplatehelper.support.InsertColumnRule;
-import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.litesoft.jdbctemplatehelper.support.QueryResultCache;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowHandler;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 
 @SuppressWarnings({"unused", "SpellCheckingInspection"})
-public class SQLhelper<T, E> implements RowMapper<E> {
+public class SQLhelper<T, E> implements ResultSetRowMapper<E> {
+    private static final int QUERY1_ROWS_EXPECTED = 2; // 1 expected, but room to detect "too many"
+
     private final List<ColumnFieldHelper<E, ?>> allCFHs = new ArrayList<>();
     private final List<ColumnFieldHelper<E, ?>> insertCFHs = new ArrayList<>();
     private final Supplier<E> emptyEntityFactory;
-    private final JdbcTemplate jdbcTemplate;
+    private final SQLexecutor executor;
+    private final QueryResultCache queryResultCache; // Nullable
     private final String tooManySuffixText;
     private final String tableName;
     private final String name;
@@ -49,8 +53,9 @@ public class SQLhelper<T, E> implements RowMapper<E> {
     private SQLhelper( String name, String tableName, Supplier<E> emptyEntityFactory,
                        List<ColumnFieldHelper<E, ?>> regularCFHs,
                        ColumnFieldHelper<E, T> idHelper, ColumnFieldHelper<E, ?> versionHelper,
-                       JdbcTemplate jdbcTemplate, String tooManySuffixText ) {
-        this.jdbcTemplate = jdbcTemplate;
+                       SQLexecutor executor, QueryResultCache queryResultCache, String tooManySuffixText ) {
+        this.executor = executor;
+        this.queryResultCache = queryResultCache;
         this.tooManySuffixText = tooManySuffixText;
         this.emptyEntityFactory = emptyEntityFactory;
         this.tableName = tableName;
@@ -88,15 +93,59 @@ public class SQLhelper<T, E> implements RowMapper<E> {
 
     public E mapRow( ResultSet rs, int rowNum )
             throws SQLException {
+        return mapColumns( rs, 1 ); // SQL 1 based!
+    }
+
+    // Join support (see JoinMapper):
+
+    String getTableName() {
+        return tableName;
+    }
+
+    int getColumnCount() {
+        return allCFHs.size();
+    }
+
+    /**
+     * Append this helper's columns as "alias.column AS prefixcolumn" (comma separated), in the same order as <code>selectAll</code>.
+     */
+    void appendAliasedColumns( StringBuilder sb, String alias, String columnPrefix ) {
+        String prefix = "";
+        for ( ColumnFieldHelper<?, ?> helper : allCFHs ) {
+            sb.append( prefix ).append( ' ' ).append( alias ).append( '.' ).append( helper.getColumnName() )
+                    .append( " AS " ).append( columnPrefix ).append( helper.getColumnName() );
+            prefix = ",";
+        }
+    }
+
+    /**
+     * Map this helper's columns starting at <code>firstColumnIndex</code> (SQL 1 based).
+     */
+    E mapColumns( ResultSet rs, int firstColumnIndex )
+            throws SQLException {
         NotNull.AssertArgument.namedValue( "ResultSet", rs );
         E target = emptyEntityFactory.get();
-        for ( int i = 0; i < allCFHs.size(); ) {
-            ColumnFieldHelper<E, ?> mapper = allCFHs.get( i );
-            mapper.map( target, rs, ++i ); // SQL 1 based!
+        for ( int i = 0; i < allCFHs.size(); i++ ) {
+            allCFHs.get( i ).map( target, rs, firstColumnIndex + i );
         }
         return target;
     }
 
+    /**
+     * Read just the ID (always the first of this helper's columns) starting at <code>firstColumnIndex</code> (SQL 1 based).
+     *
+     * @return null if the column is SQL NULL (even when the producer is primitive based, e.g. <code>ResultSet::getLong</code>)
+     */
+    T readId( ResultSet rs, int firstColumnIndex )
+            throws SQLException {
+        T id = idHelper.getResultSetGetter().get( rs, firstColumnIndex );
+        return rs.wasNull() ? null : id;
+    }
+
+    void queryRows( String sql, ResultSetRowHandler rowHandler, Object... args ) {
+        executor.query( sql, rowHandler, args );
+    }
+
     public void insert( @NotNull E toInsert ) { // C
         NotNull.AssertArgument.namedValue( "toInsert entity", toInsert );
         StringBuilder sbColumns = new StringBuilder().append( "INSERT INTO " ).append( tableName ).append( " (" );
@@ -117,7 +166,7 @@ public class SQLhelper<T, E> implements RowMapper<E> {
             throw new IllegalStateException( "Insert Error -- All columns skipped for " + name + ": " + toInsert );
         }
         if ( 0 == applyUpdate( sql, values.toArray() ) ) {
-            throw new IncorrectResultSizeDataAccessException( "Insert Failed for " + name + ": " + toInsert, 1, 0 );
+            throw executor.incorrectResultSize( "Insert Failed for " + name + ": " + toInsert, 1, 0 );
         }
     }
 
@@ -153,7 +202,28 @@ public class SQLhelper<T, E> implements RowMapper<E> {
 
     @SuppressWarnings("SqlSourceToSinkFlow")
     public int applyUpdate( String sql, Object... args ) {
-        return jdbcTemplate.update( sql, args ); // -> rowsAffected
+        try {
+            return executor.update( sql, args ); // -> rowsAffected
+        }
+        finally {
+            invalidateCache();
+            if ( queryResultCache != null ) {
+                executor.afterTransactionCompletion( this::invalidateCache ); // Readers may have cached pre-commit state
+            }
+        }
+    }
+
+    /**
+     * Invalidate the (optional) query result cache, e.g. on an external (other process) change to this table.
+     */
+    public void invalidateCache() {
+        if ( queryResultCache != null ) {
+            queryResultCache.invalidateAll();
+        }
+    }
+
+    public @Nullable QueryResultCache.Stats getCacheStats() {
+        return (queryResultCache == null) ? null : queryResultCache.getStats();
     }
 
     public boolean deleteByID( @NotNull T id ) { // D
@@ -185,9 +255,7 @@ public class SQLhelper<T, E> implements RowMapper<E> {
                      " ORDER BY " + idColumnName + " ASC LIMIT " +
                      Positive.AssertArgument.namedValue( "limit", limit );
 
-        List<T> ids = jdbcTemplate.query( sql, this::mapId,
-                                          toArray( whereClause.getQuestionMarkValues() ) );
-        return NotNull.ConstrainTo.valueOr( ids, List.of() );
+        return executor.query( sql, this::mapId, limit, toArray( whereClause.getQuestionMarkValues() ) );
     }
 
     private T mapId( ResultSet rs, int rowNum )
@@ -209,16 +277,20 @@ public class SQLhelper<T, E> implements RowMapper<E> {
             prefix = ',';
         }
         sb.append( ") ORDER BY " ).append( idColumnName );
-        return query( sb.toString() );
+        return queryExpecting( sb.toString(), ids.size() );
     }
 
     public @Nullable E query1( @NotNull WhereClause whereClause, @Nullable E inserted ) {
         String sqlTemplate = selectAll + NotNull.AssertArgument.namedValue( "whereClause", whereClause ).getText();
-        return query1( sqlTemplate, inserted, toArray( whereClause.getQuestionMarkValues() ) );
+        Object[] args = toArray( whereClause.getQuestionMarkValues() );
+        return query1( cachingQuery( sqlTemplate, QUERY1_ROWS_EXPECTED, args ), inserted, args );
     }
 
     public @Nullable E query1( String sql, @Nullable E inserted, Object... args ) {
-        List<E> entities = query( sql, args );
+        return query1( queryExpecting( sql, QUERY1_ROWS_EXPECTED, args ), inserted, args );
+    }
+
+    private @Nullable E query1( List<E> entities, @Nullable E inserted, Object[] args ) {
         return switch ( entities.size() ) {
             case 1 -> entities.get( 0 );
             case 0 -> zeroQuery1( inserted );
@@ -229,19 +301,35 @@ public class SQLhelper<T, E> implements RowMapper<E> {
     public @NotNull List<E> query( @Nullable WhereClause whereClause, String orderBy ) {
         whereClause = WhereClause.deNull( whereClause );
         String sqlTemplate = selectAll + whereClause.getText() + optionalOrderBy( orderBy );
-        return query( sqlTemplate, toArray( whereClause.getQuestionMarkValues() ) );
+        return cachingQuery( sqlTemplate, SQLexecutor.UNKNOWN_ROWS, toArray( whereClause.getQuestionMarkValues() ) );
     }
 
-    @SuppressWarnings("SqlSourceToSinkFlow")
     public @NotNull List<E> query( String sql, Object... args ) {
-        return deNull( jdbcTemplate.query( sql, this, args ) );
+        return queryExpecting( sql, SQLexecutor.UNKNOWN_ROWS, args );
+    }
+
+    private @NotNull List<E> queryExpecting( String sql, int rowsExpected, Object... args ) {
+        return deNull( executor.query( sql, this, rowsExpected, args ) );
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull List<E> cachingQuery( String sql, int rowsExpected, Object[] args ) {
+        if ( (queryResultCache == null) || executor.isTransactionActive() ) { // Don't cache (or see) uncommitted state
+            return queryExpecting( sql, rowsExpected, args );
+        }
+        List<E> cached = (List<E>)queryResultCache.get( sql, args );
+        if ( cached == null ) {
+            long generation = queryResultCache.getGeneration();
+            cached = queryResultCache.put( generation, sql, args, queryExpecting( sql, rowsExpected, args ), allCFHs.size() );
+        }
+        return new ArrayList<>( cached ); // Callers may sort / add to the list (as without the cache)
     }
 
     private Object[] toArray( List<Object> questionMarkValues ) {
         return NotNull.ConstrainTo.valueOr( questionMarkValues, List.of() ).toArray();
     }
 
-    private String optionalOrderBy( String orderBy ) {
+    static String optionalOrderBy( String orderBy ) {
         orderBy = Significant.ConstrainTo.valueOrNull( orderBy );
         return (orderBy == null) ? "" : (" " + orderBy);
     }
@@ -268,7 +356,7 @@ public class SQLhelper<T, E> implements RowMapper<E> {
 
     private E zeroQuery1( E inserted ) {
         if ( inserted != null ) {
-            throw new IncorrectResultSizeDataAccessException( "No " + name + " Record Stored for: " + inserted, 1, 0 );
+            throw executor.incorrectResultSize( "No " + name + " Record Stored for: " + inserted, 1, 0 );
         }
         return null;
     }
@@ -284,7 +372,7 @@ public class SQLhelper<T, E> implements RowMapper<E> {
             sb.append( prefix ).append( arg );
             prefix = ", ";
         }
-        throw new IncorrectResultSizeDataAccessException( sb.toString(), 1, entities );
+        throw executor.incorrectResultSize( sb.toString(), 1, entities );
     }
 
     private List<E> deNull( List<E> result ) {
@@ -298,7 +386,7 @@ public class SQLhelper<T, E> implements RowMapper<E> {
         return List.of();
     }
 
-    private void assertEntityTypeHasID( String what ) {
+    void assertEntityTypeHasID( String what ) {
         if ( idHelper == null ) {
             throw new IllegalStateException( what + " (" + entitySimpleName + ") does NOT have an ID field!" );
         }
@@ -340,6 +428,8 @@ public class SQLhelper<T, E> implements RowMapper<E> {
         private ColumnFieldHelper<E, T> idHelper;
         private ColumnFieldHelper<E, ?> versionHelper;
         private String tooManySuffixText;
+        private QueryResultCache queryResultCache;
+        private SQLdiagnostics diagnostics;
 
         public Builder( @Significant String name, @Significant String tableName,
                         @Nullable Class<T> idClass, @NotNull Supplier<E> emptyEntityFactory ) {
@@ -400,7 +490,44 @@ public class SQLhelper<T, E> implements RowMapper<E> {
             return this;
         }
 
+        /**
+         * Cache the results of <code>query( WhereClause, orderBy )</code> and <code>query1( WhereClause, inserted )</code>.
+         * <p>
+         * The returned lists are fresh, but the entities in them are shared with other callers, so they MUST be treated
+         * as read-only (e.g. do NOT <code>query1</code>, mutate, then <code>updateById</code>; use a non-cached read,
+         * e.g. <code>readById</code>, for that).
+         * <p>
+         * While a transaction is active (per the executor) the cache is bypassed, and updates invalidate both when
+         * executed and again on transaction completion. Changes made outside this helper (other processes, or
+         * <code>applyUpdate</code> on another helper) are only seen after the TTL or <code>invalidateCache()</code>.
+         */
+        public Builder<T, E> withQueryResultCache( @Nullable QueryResultCache queryResultCache ) {
+            this.queryResultCache = queryResultCache;
+            return this;
+        }
+
+        /**
+         * Wrap the executor with the (opt-in) slow statement / repeated query (N+1) diagnostics.
+         */
+        public Builder<T, E> withDiagnostics( @Nullable SQLdiagnostics diagnostics ) {
+            this.diagnostics = diagnostics;
+            return this;
+        }
+
+        /**
+         * Build on Spring's <code>JdbcTemplate</code> (requires spring-jdbc), see <code>buildWith</code>.
+         */
         public SQLhelper<T, E> build( @NotNull JdbcTemplate jdbcTemplate ) {
+            return buildWith( new JdbcTemplateSQLexecutor( jdbcTemplate ) );
+        }
+
+        /**
+         * Build on any <code>SQLexecutor</code>, e.g. <code>DataSourceSQLexecutor</code> (which does NOT need Spring).
+         * <p>
+         * Note: deliberately NOT a <code>build</code> overload, as resolving the overload would need the
+         * <code>JdbcTemplate</code> class (i.e. Spring) at compile time.
+         */
+        public SQLhelper<T, E> buildWith( @NotNull SQLexecutor executor ) {
             if ( cfhs.isEmpty() ) {
                 throw new IllegalStateException( "No Column (FieldHelper)s registered!" );
             }
@@ -410,8 +537,12 @@ public class SQLhelper<T, E> implements RowMapper<E> {
             if ( (idClass == null) && (idHelper != null) ) {
                 throw new IllegalStateException( "'idHelper' registered, but no id (Class) provided" );
             }
+            NotNull.AssertArgument.namedValue( "executor", executor );
+            if ( diagnostics != null ) {
+                executor = diagnostics.wrap( executor );
+            }
             return new SQLhelper<>( name, tableName, emptyEntityFactory, cfhs, idHelper, versionHelper,
-                                    NotNull.AssertArgument.namedValue( "JdbcTemplate", jdbcTemplate ),
+                                    executor, queryResultCache,
                                     Significant.ConstrainTo.valueOrEmpty( tooManySuffixText ) );
         }
 
@@ -0,0 +1,213 @@
+package org.litesoft.jdbctemplatehelper.support;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.litesoft.annotations.NotNull;
+import org.litesoft.annotations.Positive;
+
+/**
+ * Optional (per <code>SQLhelper</code>, i.e. per table) result cache, keyed by the generated SQL plus the
+ * question mark values.
+ * <p>
+ * Bounded by entry count (LRU) and an estimated memory size, with TTL based expiry. The whole cache is invalidated
+ * by the owning <code>SQLhelper</code> on any update (insert, updateById, deleteByID, and applyUpdate), and can be
+ * invalidated by external events via <code>invalidateAll()</code>.
+ * <p>
+ * Note: cached entities are shared between callers, so they MUST be treated as read-only!
+ */
+@SuppressWarnings("unused")
+public class QueryResultCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_MAX_ESTIMATED_BYTES = 16L * 1024 * 1024;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds( 5 );
+    public static final int DEFAULT_ESTIMATED_BYTES_PER_COLUMN = 32;
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int ROW_OVERHEAD_BYTES = 16;
+    private static final int ARG_BYTES = 16;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>( 16, 0.75f, true ); // access order -> LRU
+    private final int maxEntries;
+    private final long maxEstimatedBytes;
+    private final long timeToLiveNanos;
+    private final int estimatedBytesPerColumn;
+    private final LongSupplier nanoClock;
+
+    private long estimatedBytes;
+    private long generation; // bumped on every invalidation, so in-flight query results are NOT cached
+    private long hits, misses, expirations, evictions, invalidations;
+
+    private QueryResultCache( int maxEntries, long maxEstimatedBytes, long timeToLiveNanos,
+                              int estimatedBytesPerColumn, LongSupplier nanoClock ) {
+        this.maxEntries = maxEntries;
+        this.maxEstimatedBytes = maxEstimatedBytes;
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.estimatedBytesPerColumn = estimatedBytesPerColumn;
+        this.nanoClock = nanoClock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the cached rows (unmodifiable) or null if not present (or expired).
+     */
+    public synchronized List<?> get( String sql, Object[] args ) {
+        Key key = new Key( sql, args );
+        Entry entry = entries.get( key );
+        if ( entry != null ) {
+            if ( nanoClock.getAsLong() - entry.createdNanos < timeToLiveNanos ) {
+                hits++;
+                return entry.rows;
+            }
+            remove( key );
+            expirations++;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * @return the current generation, to be passed to <code>put</code> once the query has completed.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache the rows, unless an invalidation has occurred since <code>generation</code> was acquired.
+     *
+     * @return the rows as an unmodifiable list
+     */
+    public synchronized <E> List<E> put( long generation, String sql, Object[] args, List<E> rows, int columnsPerRow ) {
+        rows = List.copyOf( rows );
+        if ( generation != this.generation ) {
+            return rows;
+        }
+        Key key = new Key( sql, args );
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * sql.length() + (long)ARG_BYTES * key.args.length +
+                     (long)rows.size() * (ROW_OVERHEAD_BYTES + (long)columnsPerRow * estimatedBytesPerColumn);
+        if ( bytes > maxEstimatedBytes ) {
+            return rows; // Never fits!
+        }
+        remove( key );
+        entries.put( key, new Entry( rows, bytes, nanoClock.getAsLong() ) );
+        estimatedBytes += bytes;
+        evictAsNeeded();
+        return rows;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations++;
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats( hits, misses, expirations, evictions, invalidations, entries.size(), estimatedBytes );
+    }
+
+    private void evictAsNeeded() {
+        Iterator<Entry> it = entries.values().iterator(); // LRU first
+        while ( ((entries.size() > maxEntries) || (estimatedBytes > maxEstimatedBytes)) && it.hasNext() ) {
+            estimatedBytes -= it.next().estimatedBytes;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private void remove( Key key ) {
+        Entry removed = entries.remove( key );
+        if ( removed != null ) {
+            estimatedBytes -= removed.estimatedBytes;
+        }
+    }
+
+    public record Stats(long hits, long misses, long expirations, long evictions, long invalidations,
+                        int entries, long estimatedBytes) {
+        public double hitRatio() {
+            long requests = hits + misses;
+            return (requests == 0) ? 0.0 : ((double)hits / requests);
+        }
+    }
+
+    private record Entry(List<?> rows, long estimatedBytes, long createdNanos) {
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final Object[] args;
+        private final int hashCode;
+
+        Key( String sql, Object[] args ) {
+            this.sql = sql;
+            this.args = (args == null) ? new Object[0] : args.clone();
+            hashCode = 31 * sql.hashCode() + Arrays.deepHashCode( this.args ); // deep: e.g. byte[] binds
+        }
+
+        @Override
+        public boolean equals( Object o ) {
+            return (this == o) || ((o instanceof Key them)
+                                   && (hashCode == them.hashCode)
+                                   && sql.equals( them.sql )
+                                   && Arrays.deepEquals( args, them.args ));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    public static class Builder {
+        private int maxEntries = DEFAULT_MAX_ENTRIES;
+        private long maxEstimatedBytes = DEFAULT_MAX_ESTIMATED_BYTES;
+        private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+        private int estimatedBytesPerColumn = DEFAULT_ESTIMATED_BYTES_PER_COLUMN;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        public Builder maxEntries( @Positive int maxEntries ) {
+            this.maxEntries = Positive.AssertArgument.namedValue( "maxEntries", maxEntries );
+            return this;
+        }
+
+        public Builder maxEstimatedBytes( @Positive long maxEstimatedBytes ) {
+            if ( maxEstimatedBytes < 1 ) {
+                throw new IllegalArgumentException( "maxEstimatedBytes must be positive, but was: " + maxEstimatedBytes );
+            }
+            this.maxEstimatedBytes = maxEstimatedBytes;
+            return this;
+        }
+
+        public Builder timeToLive( @NotNull Duration timeToLive ) {
+            this.timeToLive = NotNull.AssertArgument.namedValue( "timeToLive", timeToLive );
+            return this;
+        }
+
+        public Builder estimatedBytesPerColumn( @Positive int estimatedBytesPerColumn ) {
+            this.estimatedBytesPerColumn = Positive.AssertArgument.namedValue( "estimatedBytesPerColumn", estimatedBytesPerColumn );
+            return this;
+        }
+
+        public Builder nanoClock( @NotNull LongSupplier nanoClock ) {
+            this.nanoClock = NotNull.AssertArgument.namedValue( "nanoClock", nanoClock );
+            return this;
+        }
+
+        public QueryResultCache build() {
+            if ( timeToLive.isNegative() || timeToLive.isZero() ) {
+                throw new IllegalStateException( "timeToLive must be positive, but was: " + timeToLive );
+            }
+            return new QueryResultCache( maxEntries, maxEstimatedBytes, timeToLive.toNanos(),
+                                         estimatedBytesPerColumn, nanoClock );
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.litesoft.jdbctemplatehelper.support;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Spring free equivalent of Spring's <code>RowMapper</code> (same signature, so method references work for both).
+ */
+public interface ResultSetRowMapper<R> {
+    R mapRow( ResultSet rs, int rowNum )
+            throws SQLException;
+}
@@ -0,0 +1,52 @@
+package org.litesoft.jdbctemplatehelper.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.litesoft.annotations.Positive;
+
+/**
+ * Bounded (thread safe) buffer that keeps the most recent <code>capacity</code> entries.
+ */
+public class RingBuffer<T> {
+    private final Object[] entries;
+    private int next;
+    private long added;
+
+    public RingBuffer( @Positive int capacity ) {
+        entries = new Object[Positive.AssertArgument.namedValue( "capacity", capacity )];
+    }
+
+    public synchronized void add( T entry ) {
+        entries[next] = entry;
+        next = (next + 1) % entries.length;
+        added++;
+    }
+
+    /**
+     * @return total number added (including those no longer retained)
+     */
+    public synchronized long getAdded() {
+        return added;
+    }
+
+    /**
+     * @return the retained entries, oldest first
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> snapshot() {
+        int size = (int)Math.min( added, entries.length );
+        List<T> result = new ArrayList<>( size );
+        for ( int i = size; i > 0; i-- ) {
+            result.add( (T)entries[(next - i + entries.length) % entries.length] );
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill( entries, null );
+        next = 0;
+        added = 0;
+    }
+}
@@ -0,0 +1,186 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceSQLexecutorTest {
+    private static final String SQL = "UPDATE things SET name = ? WHERE id = ? AND active = ?";
+    private static final String SELECT = "SELECT id FROM things WHERE name = ?";
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<Object[]> setterArgs = new ArrayList<>();
+    private boolean parameterMetaDataSupported = true;
+    private int rows = 3;
+
+    @Test
+    void typedBindingAndNoScope() {
+        DataSourceSQLexecutor executor = new DataSourceSQLexecutor( dataSource() );
+        assertEquals( 1, executor.update( SQL, "fred", 42L, null ) );
+        assertEquals( List.of( "getConnection", "prepareStatement",
+                               "setString(1)", "setLong(2)", "getParameterMetaData", "setNull(3)", "executeUpdate",
+                               "close(PreparedStatement)", "close(Connection)" ), calls );
+    }
+
+    @Test
+    void charSequenceAsString() {
+        new DataSourceSQLexecutor( dataSource() ).update( SQL, new StringBuilder( "fred" ), 42L, true );
+        assertEquals( "setString(1)", calls.get( 2 ) );
+        assertEquals( "fred", setterArgs.get( 0 )[1] );
+    }
+
+    @Test
+    void utilDateAsTimestamp() {
+        java.util.Date date = new java.util.Date( 1234567890L );
+        new DataSourceSQLexecutor( dataSource() ).update( SQL, date, 42L, true );
+        assertEquals( "setTimestamp(1)", calls.get( 2 ) );
+        assertEquals( new Timestamp( 1234567890L ), setterArgs.get( 0 )[1] );
+    }
+
+    @Test
+    void calendarAsTimestampInItsZone() {
+        Calendar calendar = Calendar.getInstance( TimeZone.getTimeZone( "Pacific/Auckland" ) );
+        calendar.setTimeInMillis( 1234567890L );
+        new DataSourceSQLexecutor( dataSource() ).update( SQL, calendar, 42L, true );
+        assertEquals( "setTimestamp(1)", calls.get( 2 ) );
+        assertEquals( List.of( 1, new Timestamp( 1234567890L ), calendar ), List.of( setterArgs.get( 0 ) ) );
+    }
+
+    @Test
+    void nullWithoutParameterMetaData() {
+        parameterMetaDataSupported = false;
+        DataSourceSQLexecutor executor = new DataSourceSQLexecutor( dataSource() );
+        executor.update( SQL, null, 42L, true );
+        assertEquals( List.of( "getConnection", "prepareStatement",
+                               "getParameterMetaData", "setObject(1)", "setLong(2)", "setBoolean(3)", "executeUpdate",
+                               "close(PreparedStatement)", "close(Connection)" ), calls );
+    }
+
+    @Test
+    void statementReuseInScope() {
+        DataSourceSQLexecutor executor = new DataSourceSQLexecutor( dataSource() );
+        executor.runInConnectionScope( () -> {
+            executor.update( SQL, "fred", 42L, true );
+            executor.inConnectionScope( () -> executor.update( SQL, "wilma", 43L, false ) ); // nested -> joins
+        } );
+        assertEquals( List.of( "getConnection", "prepareStatement",
+                               "setString(1)", "setLong(2)", "setBoolean(3)", "executeUpdate",
+                               "clearParameters",
+                               "setString(1)", "setLong(2)", "setBoolean(3)", "executeUpdate",
+                               "close(PreparedStatement)", "close(Connection)" ), calls );
+    }
+
+    @Test
+    void statementCacheIsBounded() {
+        DataSourceSQLexecutor executor = new DataSourceSQLexecutor( dataSource(), 1 );
+        executor.runInConnectionScope( () -> {
+            executor.update( "DELETE FROM things WHERE id IN (1,2)" );
+            executor.update( "DELETE FROM things WHERE id IN (3,4)" ); // evicts (and closes) the first
+        } );
+        assertEquals( List.of( "getConnection",
+                               "prepareStatement", "executeUpdate",
+                               "prepareStatement", "executeUpdate", "close(PreparedStatement)",
+                               "close(PreparedStatement)", "close(Connection)" ), calls );
+    }
+
+    @Test
+    void inUseStatementNotReused() {
+        rows = 1;
+        DataSourceSQLexecutor executor = new DataSourceSQLexecutor( dataSource() );
+        executor.runInConnectionScope( () -> executor.query( SELECT, rs -> {
+            executor.query( SELECT, ( inner, rowNum ) -> rowNum, 1, "inner" );
+        }, "outer" ) );
+        assertEquals( List.of( "getConnection",
+                               "prepareStatement", "setString(1)", "executeQuery", "next",
+                               "prepareStatement", "setString(1)", "executeQuery", "next", "next", "close(ResultSet)",
+                               "next", "close(ResultSet)",
+                               "close(PreparedStatement)", // outer: the (idle) inner one is already cached
+                               "close(PreparedStatement)", "close(Connection)" ), calls );
+    }
+
+    @Test
+    void queryRowNumsAndClosesResultSet() {
+        DataSourceSQLexecutor executor = new DataSourceSQLexecutor( dataSource() );
+        assertEquals( List.of( 0, 1, 2 ), executor.query( SELECT, ( rs, rowNum ) -> rowNum, 2, "fred" ) );
+        assertEquals( List.of( "getConnection", "prepareStatement", "setString(1)", "executeQuery",
+                               "next", "next", "next", "next", "close(ResultSet)",
+                               "close(PreparedStatement)", "close(Connection)" ), calls );
+    }
+
+    @Test
+    void rowHandlerClosesResultSet() {
+        DataSourceSQLexecutor executor = new DataSourceSQLexecutor( dataSource() );
+        int[] processed = {0};
+        executor.query( SELECT, rs -> processed[0]++, "fred" );
+        assertEquals( 3, processed[0] );
+        assertTrue( calls.contains( "close(ResultSet)" ) );
+    }
+
+    @Test
+    void listSizing() {
+        assertEquals( 7, DataSourceSQLexecutor.initialCapacity( 7 ) );
+        assertEquals( 10, DataSourceSQLexecutor.initialCapacity( SQLexecutor.UNKNOWN_ROWS ) );
+        assertEquals( SQLexecutor.MAX_ROWS_EXPECTED, DataSourceSQLexecutor.initialCapacity( Integer.MAX_VALUE ) );
+    }
+
+    @Test
+    void hugeLimitIsOnlyAHint() {
+        rows = 0;
+        SQLhelper<Long, SQLhelperQueryCacheTest.Thing> helper = SQLhelper.<Long, SQLhelperQueryCacheTest.Thing>builder(
+                        "Thing", Long.class, SQLhelperQueryCacheTest.Thing::new, "things" )
+                .addAutoInsertId( ResultSet::getLong, "id", ( e, v ) -> e.id = v, e -> e.id )
+                .add( ResultSet::getString, "name", ( e, v ) -> e.name = v, e -> e.name )
+                .buildWith( new DataSourceSQLexecutor( dataSource() ) );
+        assertEquals( List.of(), helper.getIDs( null, null, Integer.MAX_VALUE ) );
+    }
+
+    private DataSource dataSource() {
+        Connection connection = proxy( Connection.class, ( name, args ) -> name.equals( "prepareStatement" ) ?
+                                                                          preparedStatement() : null );
+        return proxy( DataSource.class, ( name, args ) -> name.equals( "getConnection" ) ? connection : null );
+    }
+
+    private PreparedStatement preparedStatement() {
+        return proxy( PreparedStatement.class, ( name, args ) -> switch ( name ) {
+            case "setString", "setTimestamp" -> {
+                setterArgs.add( args );
+                yield null;
+            }
+            case "executeUpdate" -> 1;
+            case "executeQuery" -> resultSet();
+            case "getParameterMetaData" -> parameterMetaData();
+            default -> null;
+        } );
+    }
+
+    private ResultSet resultSet() {
+        int[] row = {0};
+        return proxy( ResultSet.class, ( name, args ) -> name.equals( "next" ) ? (row[0]++ < rows) : null );
+    }
+
+    private ParameterMetaData parameterMetaData()
+            throws SQLException {
+        if ( !parameterMetaDataSupported ) {
+            throw new SQLFeatureNotSupportedException();
+        }
+        return JdbcFakes.proxy( ParameterMetaData.class, ( name, args ) -> Types.VARCHAR );
+    }
+
+    private <P> P proxy( Class<P> type, JdbcFakes.Responder responder ) {
+        return JdbcFakes.recordingProxy( type, calls, responder );
+    }
+}
@@ -0,0 +1,163 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowHandler;
+import org.litesoft.jdbctemplatehelper.support.ResultSetRowMapper;
+
+/**
+ * Test fixtures shared by the tests: JDBC interface proxies, a ResultSet over canned rows, and a fake SQLexecutor.
+ */
+final class JdbcFakes {
+    private JdbcFakes() {
+    }
+
+    interface Responder {
+        Object respond( String methodName, Object[] args )
+                throws SQLException;
+    }
+
+    static <P> P proxy( Class<P> type, Responder responder ) {
+        return type.cast( Proxy.newProxyInstance( JdbcFakes.class.getClassLoader(), new Class<?>[]{type},
+                                                  ( p, method, args ) -> responder.respond( method.getName(), args ) ) );
+    }
+
+    /**
+     * Records each call as: "close(SimpleTypeName)", "setXxx(parameterIndex)", or just the method name.
+     */
+    static <P> P recordingProxy( Class<P> type, List<String> calls, Responder responder ) {
+        return proxy( type, ( name, args ) -> {
+            if ( name.equals( "close" ) ) {
+                calls.add( "close(" + type.getSimpleName() + ")" );
+            } else if ( name.startsWith( "set" ) ) {
+                calls.add( name + "(" + args[0] + ")" );
+            } else {
+                calls.add( name );
+            }
+            return responder.respond( name, args );
+        } );
+    }
+
+    /**
+     * Column access is by (1 based) index, and (like a real driver) getLong & getInt return 0 for SQL NULL.
+     */
+    static ResultSet resultSet( Object[]... rows ) {
+        return resultSet( null, rows );
+    }
+
+    /**
+     * @param labels column labels for the ResultSetMetaData (null for none)
+     */
+    static ResultSet resultSet( String[] labels, Object[]... rows ) {
+        ResultSetMetaData metaData = proxy( ResultSetMetaData.class, ( name, args ) -> switch ( name ) {
+            case "getColumnCount" -> labels.length;
+            case "getColumnLabel" -> labels[(Integer)args[0] - 1];
+            default -> throw new UnsupportedOperationException( name );
+        } );
+        int[] row = {-1};
+        Object[] lastValue = {null};
+        return proxy( ResultSet.class, ( name, args ) -> switch ( name ) {
+            case "next" -> ++row[0] < rows.length;
+            case "getLong", "getInt", "getString", "getObject" -> {
+                lastValue[0] = rows[row[0]][(Integer)args[0] - 1];
+                if ( lastValue[0] != null ) {
+                    yield name.equals( "getString" ) ? lastValue[0].toString() : lastValue[0];
+                }
+                yield switch ( name ) {
+                    case "getLong" -> 0L;
+                    case "getInt" -> 0;
+                    default -> null;
+                };
+            }
+            case "wasNull" -> lastValue[0] == null;
+            case "getMetaData" -> metaData;
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException( name );
+        } );
+    }
+
+    /**
+     * Records the SQL executed, answers queries from <code>results</code> (by SQL), and updates with
+     * <code>rowsAffected</code>. When <code>failure</code> is set, every call throws it (after recording the SQL).
+     */
+    static class FakeExecutor implements SQLexecutor {
+        final List<String> executed = new ArrayList<>();
+        final List<Runnable> afterCompletion = new ArrayList<>();
+        Function<String, ResultSet> results = sql -> resultSet();
+        List<Object> lastArgs;
+        RuntimeException failure;
+        boolean inTransaction;
+        int rowsAffected = 1;
+        int queries;
+
+        @Override
+        public int update( String sql, Object... args ) {
+            record( sql, args );
+            return rowsAffected;
+        }
+
+        @Override
+        public <R> List<R> query( String sql, ResultSetRowMapper<R> rowMapper, int rowsExpected, Object... args ) {
+            record( sql, args );
+            queries++;
+            List<R> rows = new ArrayList<>();
+            try {
+                ResultSet rs = results.apply( sql );
+                for ( int rowNum = 0; rs.next(); rowNum++ ) {
+                    rows.add( rowMapper.mapRow( rs, rowNum ) );
+                }
+            }
+            catch ( SQLException e ) {
+                throw new SQLexecutionException( e );
+            }
+            return rows;
+        }
+
+        @Override
+        public void query( String sql, ResultSetRowHandler rowHandler, Object... args ) {
+            record( sql, args );
+            queries++;
+            try {
+                ResultSet rs = results.apply( sql );
+                while ( rs.next() ) {
+                    rowHandler.processRow( rs );
+                }
+            }
+            catch ( SQLException e ) {
+                throw new SQLexecutionException( e );
+            }
+        }
+
+        @Override
+        public boolean isTransactionActive() {
+            return inTransaction;
+        }
+
+        @Override
+        public void afterTransactionCompletion( Runnable action ) {
+            if ( inTransaction ) {
+                afterCompletion.add( action );
+            }
+        }
+
+        @Override
+        public RuntimeException incorrectResultSize( String message, int expectedSize, int actualSize ) {
+            return new IncorrectResultSizeException( message, expectedSize, actualSize );
+        }
+
+        private void record( String sql, Object[] args ) {
+            executed.add( sql );
+            lastArgs = (args == null) ? List.of() : Arrays.asList( args );
+            if ( failure != null ) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinMapperTest {
+
+    @Test
+    void selectFrom() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate();
+        SQLhelper<Long, Order> orders = orders().build( jdbcTemplate );
+        SQLhelper<Long, LineItem> lineItems = lineItems().build( jdbcTemplate );
+
+        JoinMapper<Long, Order> mapper = JoinMapper.builder( orders, "o" )
+                .leftJoin( lineItems, "li", "li.order_id = o.id", Order::addLineItem )
+                .build();
+
+        assertEquals( "SELECT o.id AS o_id, o.customer AS o_customer, li.id AS li_id, li.order_id AS li_order_id" +
+                      " FROM orders o LEFT JOIN line_items li ON li.order_id = o.id", mapper.getSelectFrom() );
+    }
+
+    @Test
+    void rowAssembly() {
+        JdbcFakes.FakeExecutor executor = new JdbcFakes.FakeExecutor();
+        executor.results = sql -> JdbcFakes.resultSet( // getLong returns 0 for SQL NULL (like a real driver)
+                // o.id, o.customer, li.id, li.order_id, n.id, n.text
+                new Object[]{1L, "fred", 10L, 1L, 100L, "a"},
+                new Object[]{1L, "fred", 10L, 1L, 101L, "b"}, // li 10 repeated by the notes join
+                new Object[]{1L, "fred", 11L, 1L, 100L, "a"},
+                new Object[]{1L, "fred", 11L, 1L, 101L, "b"},
+                new Object[]{2L, "wilma", null, null, 200L, "c"} ); // LEFT JOIN with no line items
+        SQLhelper<Long, Order> orders = orders().buildWith( executor );
+        SQLhelper<Long, LineItem> lineItems = lineItems().buildWith( executor );
+        SQLhelper<Long, Note> notes = SQLhelper.<Long, Note>builder( "Note", Long.class, Note::new, "notes" )
+                .addAutoInsertId( ResultSet::getLong, "id", ( e, v ) -> e.id = v, e -> e.id )
+                .add( ResultSet::getString, "text", ( e, v ) -> e.text = v, e -> e.text )
+                .buildWith( executor );
+
+        List<Order> result = JoinMapper.builder( orders, "o" )
+                .leftJoin( lineItems, "li", "li.order_id = o.id", Order::addLineItem )
+                .join( notes, "n", "n.order_id = o.id", Order::addNote )
+                .build()
+                .query( new WhereClause().add( "o.customer != ?", "barney" ), "ORDER BY o.id" );
+
+        assertEquals( List.of( "barney" ), executor.lastArgs );
+        assertTrue( executor.executed.get( 0 ).endsWith( " WHERE o.customer != ? ORDER BY o.id" ) );
+        assertEquals( 2, result.size() );
+
+        Order fred = result.get( 0 );
+        assertEquals( 1L, (long)fred.id );
+        assertEquals( "fred", fred.customer );
+        assertEquals( List.of( 10L, 11L ), fred.lineItems.stream().map( li -> li.id ).toList() );
+        assertEquals( List.of( 100L, 101L ), fred.notes.stream().map( n -> n.id ).toList() );
+
+        Order wilma = result.get( 1 );
+        assertEquals( 2L, (long)wilma.id );
+        assertEquals( List.of(), wilma.lineItems );
+        assertEquals( List.of( "c" ), wilma.notes.stream().map( n -> n.text ).toList() );
+    }
+
+    private static SQLhelper.Builder<Long, Order> orders() {
+        return SQLhelper.<Long, Order>builder( "Order", Long.class, Order::new, "orders" )
+                .addAutoInsertId( ResultSet::getLong, "id", ( e, v ) -> e.id = v, e -> e.id )
+                .add( ResultSet::getString, "customer", ( e, v ) -> e.customer = v, e -> e.customer );
+    }
+
+    private static SQLhelper.Builder<Long, LineItem> lineItems() {
+        return SQLhelper.<Long, LineItem>builder( "LineItem", Long.class, LineItem::new, "line_items" )
+                .addAutoInsertId( ResultSet::getLong, "id", ( e, v ) -> e.id = v, e -> e.id )
+                .add( ResultSet::getLong, "order_id", ( e, v ) -> e.orderId = v, e -> e.orderId );
+    }
+
+    static class Order {
+        Long id;
+        String customer;
+        List<LineItem> lineItems = new ArrayList<>();
+        List<Note> notes = new ArrayList<>();
+
+        void addLineItem( LineItem lineItem ) {
+            lineItems.add( lineItem );
+        }
+
+        void addNote( Note note ) {
+            notes.add( note );
+        }
+    }
+
+    static class LineItem {
+        Long id;
+        Long orderId;
+    }
+
+    static class Note {
+        Long id;
+        String text;
+    }
+}
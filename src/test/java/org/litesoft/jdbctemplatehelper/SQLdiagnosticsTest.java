@@ -0,0 +1,160 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLdiagnosticsTest {
+    private static final String SQL = "SELECT id, name FROM things WHERE id = ?";
+
+    private String[][] explainColumns = {{"QUERY PLAN", "plan"}}; // label, value
+    private final JdbcFakes.FakeExecutor fake = fakeExecutor();
+
+    @Test
+    void repeatedQuery() {
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ofHours( 1 ) )
+                .repeatedQueryThreshold( 3 ).build();
+        SQLexecutor executor = diagnostics.wrap( fake );
+        executor.query( SQL, ( rs, rowNum ) -> "", 2, 1L ); // Not in a scope
+        diagnostics.runInScope( () -> {
+            for ( long id = 2; id < 7; id++ ) {
+                executor.query( SQL, ( rs, rowNum ) -> "", 2, id );
+            }
+        } );
+        List<SQLdiagnostics.Event> events = diagnostics.dump();
+        assertEquals( 1, events.size() );
+        SQLdiagnostics.Event event = events.get( 0 );
+        assertEquals( SQLdiagnostics.Kind.RepeatedQuery, event.kind() );
+        assertEquals( 3, event.repeats() );
+        assertEquals( List.of( 4L ), event.binds() );
+        assertTrue( event.callSite().contains( SQLdiagnosticsTest.class.getName() ) );
+    }
+
+    @Test
+    void repeatedReadByIdAttributedToTheCaller() {
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ofHours( 1 ) )
+                .repeatedQueryThreshold( 3 ).build();
+        SQLhelper<Long, SQLhelperQueryCacheTest.Thing> helper = SQLhelper.<Long, SQLhelperQueryCacheTest.Thing>builder(
+                        "Thing", Long.class, SQLhelperQueryCacheTest.Thing::new, "things" )
+                .addAutoInsertId( ResultSet::getLong, "id", ( e, v ) -> e.id = v, e -> e.id )
+                .add( ResultSet::getString, "name", ( e, v ) -> e.name = v, e -> e.name )
+                .withDiagnostics( diagnostics )
+                .buildWith( fake );
+        diagnostics.runInScope( () -> {
+            for ( long id = 1; id <= 3; id++ ) {
+                helper.readById( id );
+            }
+        } );
+        List<SQLdiagnostics.Event> events = diagnostics.dump();
+        assertEquals( 1, events.size() );
+        String callSite = events.get( 0 ).callSite();
+        assertTrue( callSite.startsWith( SQLdiagnosticsTest.class.getName() + ".lambda$repeatedReadByIdAttributedToTheCaller$" ),
+                    callSite );
+    }
+
+    @Test
+    void slowWithExplainOncePerShape() {
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ZERO )
+                .explainSampleRate( 1.0 ).build();
+        SQLexecutor executor = diagnostics.wrap( fake );
+        executor.query( SQL, ( rs, rowNum ) -> "", 2, 1L );
+        executor.query( SQL, ( rs, rowNum ) -> "", 2, 2L );
+        executor.update( "DELETE FROM things WHERE id = ?", 3L );
+        assertEquals( List.of( SQL, "EXPLAIN " + SQL, SQL, "DELETE FROM things WHERE id = ?" ), fake.executed );
+
+        List<SQLdiagnostics.Event> events = diagnostics.dump();
+        assertEquals( 3, events.size() );
+        assertEquals( "plan", events.get( 0 ).explain() );
+        assertNull( events.get( 1 ).explain() );
+        assertEquals( 1, events.get( 2 ).rows() );
+        for ( SQLdiagnostics.Event event : events ) {
+            assertEquals( SQLdiagnostics.Kind.SlowStatement, event.kind() );
+        }
+    }
+
+    @Test
+    void slowAndFailed() {
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ZERO )
+                .explainSampleRate( 1.0 ).build();
+        SQLexecutor executor = diagnostics.wrap( fake );
+        fake.failure = new SQLexecutionException( "Query timed out" );
+        assertThrows( SQLexecutionException.class, () -> executor.query( SQL, ( rs, rowNum ) -> "", 2, 1L ) );
+        assertThrows( SQLexecutionException.class, () -> executor.query( SQL, rs -> {}, 2L ) );
+        assertThrows( SQLexecutionException.class, () -> executor.update( "DELETE FROM things WHERE id = ?", 3L ) );
+        assertEquals( List.of( SQL, SQL, "DELETE FROM things WHERE id = ?" ), fake.executed ); // NO EXPLAINs
+
+        List<SQLdiagnostics.Event> events = diagnostics.dump();
+        assertEquals( 3, events.size() );
+        for ( SQLdiagnostics.Event event : events ) {
+            assertEquals( SQLdiagnostics.Kind.SlowStatement, event.kind() );
+            assertEquals( SQLdiagnostics.FAILED_ROWS, event.rows() );
+        }
+    }
+
+    @Test
+    void explainAllColumns() {
+        explainColumns = new String[][]{{"id", "1"}, {"select_type", "SIMPLE"}, {"type", "ALL"}};
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ZERO )
+                .explainSampleRate( 1.0 ).build();
+        diagnostics.wrap( fake ).query( SQL, ( rs, rowNum ) -> "", 2, 1L );
+        assertEquals( "id=1, select_type=SIMPLE, type=ALL", diagnostics.dump().get( 0 ).explain() );
+    }
+
+    @Test
+    void literalInListsShareAShape() {
+        assertEquals( "SELECT id FROM things WHERE id IN (...) ORDER BY id",
+                      SQLdiagnostics.shape( "SELECT id FROM things WHERE id IN (1,2,3) ORDER BY id" ) );
+        assertEquals( SQL, SQLdiagnostics.shape( SQL ) );
+
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ZERO )
+                .explainSampleRate( 1.0 ).build();
+        SQLexecutor executor = diagnostics.wrap( fake );
+        executor.query( "SELECT id FROM things WHERE id IN (1,2)", ( rs, rowNum ) -> "", 2 );
+        executor.query( "SELECT id FROM things WHERE id IN (3,4,5)", ( rs, rowNum ) -> "", 3 );
+        assertEquals( 1, fake.executed.stream().filter( sql -> sql.startsWith( "EXPLAIN " ) ).count() );
+    }
+
+    @Test
+    void explainedShapesBounded() {
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ZERO )
+                .explainSampleRate( 1.0 ).maxExplainedShapes( 1 ).build();
+        SQLexecutor executor = diagnostics.wrap( fake );
+        executor.query( "SELECT a FROM x", ( rs, rowNum ) -> "", 2 );
+        executor.query( "SELECT b FROM x", ( rs, rowNum ) -> "", 2 ); // evicts "SELECT a FROM x"
+        executor.query( "SELECT a FROM x", ( rs, rowNum ) -> "", 2 );
+        assertEquals( 3, fake.executed.stream().filter( sql -> sql.startsWith( "EXPLAIN " ) ).count() );
+    }
+
+    @Test
+    void disabled() {
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().enabled( false ).slowThreshold( Duration.ZERO )
+                .repeatedQueryThreshold( 1 ).build();
+        SQLexecutor executor = diagnostics.wrap( fake );
+        diagnostics.runInScope( () -> executor.query( SQL, ( rs, rowNum ) -> "", 2, 1L ) );
+        assertEquals( List.of(), diagnostics.dump() );
+    }
+
+    @Test
+    void boundedRingBuffer() {
+        SQLdiagnostics diagnostics = SQLdiagnostics.builder().slowThreshold( Duration.ZERO ).capacity( 2 ).build();
+        SQLexecutor executor = diagnostics.wrap( fake );
+        executor.update( "UPDATE a SET x = 1" );
+        executor.update( "UPDATE b SET x = 1" );
+        executor.update( "UPDATE c SET x = 1" );
+        assertEquals( List.of( "UPDATE b SET x = 1", "UPDATE c SET x = 1" ),
+                      diagnostics.dump().stream().map( SQLdiagnostics.Event::sql ).toList() );
+    }
+
+    private JdbcFakes.FakeExecutor fakeExecutor() {
+        JdbcFakes.FakeExecutor executor = new JdbcFakes.FakeExecutor();
+        executor.results = sql -> !sql.startsWith( "EXPLAIN " ) ? JdbcFakes.resultSet() :
+                                  JdbcFakes.resultSet( Arrays.stream( explainColumns ).map( c -> c[0] ).toArray( String[]::new ),
+                                                       Arrays.stream( explainColumns ).map( c -> c[1] ).toArray() );
+        return executor;
+    }
+}
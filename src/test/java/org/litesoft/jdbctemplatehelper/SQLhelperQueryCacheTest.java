@@ -0,0 +1,89 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.litesoft.jdbctemplatehelper.support.QueryResultCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLhelperQueryCacheTest {
+    private final JdbcFakes.FakeExecutor executor = fakeExecutor();
+    private final SQLhelper<Long, Thing> helper = SQLhelper.<Long, Thing>builder( "Thing", Long.class, Thing::new, "things" )
+            .addAutoInsertId( ResultSet::getLong, "id", ( e, v ) -> e.id = v, e -> e.id )
+            .add( ResultSet::getString, "name", ( e, v ) -> e.name = v, e -> e.name )
+            .withQueryResultCache( QueryResultCache.builder().build() )
+            .buildWith( executor );
+
+    @Test
+    void freshListsFromCache() {
+        List<Thing> first = helper.query( new WhereClause().add( "name = ?", "a" ), null );
+        first.add( new Thing() ); // Must not throw, nor change the cached list
+        List<Thing> second = helper.query( new WhereClause().add( "name = ?", "a" ), null );
+        assertEquals( 1, executor.queries );
+        assertEquals( 1, second.size() );
+        assertSame( first.get( 0 ), second.get( 0 ) ); // Entities ARE shared (hence read-only)
+    }
+
+    @Test
+    void invalidatedByEachWriteOutsideATransaction() {
+        Thing thing = new Thing();
+        thing.id = 1L;
+        thing.name = "b";
+        Map<String, Runnable> writes = new LinkedHashMap<>();
+        writes.put( "insert", () -> helper.insert( thing ) );
+        writes.put( "updateById", () -> helper.updateById( thing ) );
+        writes.put( "deleteByID", () -> helper.deleteByID( 1L ) );
+        writes.put( "applyUpdate", () -> helper.applyUpdate( "UPDATE things SET name = 'c'" ) );
+
+        helper.query( new WhereClause().add( "name = ?", "a" ), null ); // fills the cache
+        for ( Map.Entry<String, Runnable> write : writes.entrySet() ) {
+            int queries = executor.queries;
+            long misses = helper.getCacheStats().misses();
+            helper.query( new WhereClause().add( "name = ?", "a" ), null );
+            assertEquals( queries, executor.queries, "cached before " + write.getKey() );
+
+            write.getValue().run();
+            helper.query( new WhereClause().add( "name = ?", "a" ), null );
+            assertEquals( misses + 1, helper.getCacheStats().misses(), "miss after " + write.getKey() );
+            assertEquals( queries + 1, executor.queries, "re-queried after " + write.getKey() );
+        }
+        assertEquals( List.of(), executor.afterCompletion ); // Not in a transaction
+    }
+
+    @Test
+    void bypassedInTransaction() {
+        executor.inTransaction = true;
+        helper.query( new WhereClause().add( "name = ?", "a" ), null );
+        helper.query( new WhereClause().add( "name = ?", "a" ), null );
+        assertEquals( 2, executor.queries );
+        assertEquals( 0, helper.getCacheStats().entries() );
+    }
+
+    @Test
+    void invalidatedAgainOnTransactionCompletion() {
+        executor.inTransaction = true;
+        helper.applyUpdate( "UPDATE things SET name = 'b'" );
+        executor.inTransaction = false;
+        helper.query( new WhereClause().add( "name = ?", "a" ), null ); // e.g. another thread re-caching pre-commit state
+        assertEquals( 1, helper.getCacheStats().entries() );
+        for ( Runnable action : executor.afterCompletion ) {
+            action.run();
+        }
+        assertEquals( 0, helper.getCacheStats().entries() );
+    }
+
+    private static JdbcFakes.FakeExecutor fakeExecutor() {
+        JdbcFakes.FakeExecutor executor = new JdbcFakes.FakeExecutor();
+        executor.results = sql -> JdbcFakes.resultSet( new Object[]{1L, "a"} );
+        return executor;
+    }
+
+    static class Thing {
+        Long id;
+        String name;
+    }
+}
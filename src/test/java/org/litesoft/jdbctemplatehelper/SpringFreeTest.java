@@ -0,0 +1,51 @@
+package org.litesoft.jdbctemplatehelper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Run by its own surefire execution (see the pom) WITHOUT Spring on the classpath.
+ */
+class SpringFreeTest {
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void dataSourceExecutorWithoutSpring() {
+        assertThrows( ClassNotFoundException.class, () -> Class.forName( "org.springframework.jdbc.core.JdbcTemplate" ) );
+
+        SQLhelper<Long, SQLhelperQueryCacheTest.Thing> helper = SQLhelper.<Long, SQLhelperQueryCacheTest.Thing>builder(
+                        "Thing", Long.class, SQLhelperQueryCacheTest.Thing::new, "things" )
+                .addAutoInsertId( ResultSet::getLong, "id", ( e, v ) -> e.id = v, e -> e.id )
+                .add( ResultSet::getString, "name", ( e, v ) -> e.name = v, e -> e.name )
+                .buildWith( new DataSourceSQLexecutor( dataSource() ) );
+
+        SQLhelperQueryCacheTest.Thing fred = helper.readById( 7L );
+        assertEquals( 7L, (long)fred.id );
+        assertEquals( "fred", fred.name );
+        assertTrue( helper.deleteByID( 7L ) );
+        assertEquals( List.of( "setLong(1)", "executeQuery", "close(PreparedStatement)",
+                               "setLong(1)", "executeUpdate", "close(PreparedStatement)" ), calls );
+    }
+
+    private DataSource dataSource() {
+        Connection connection = JdbcFakes.proxy( Connection.class, ( name, args ) -> name.equals( "prepareStatement" ) ?
+                                                                                     preparedStatement() : null );
+        return JdbcFakes.proxy( DataSource.class, ( name, args ) -> name.equals( "getConnection" ) ? connection : null );
+    }
+
+    private PreparedStatement preparedStatement() {
+        return JdbcFakes.recordingProxy( PreparedStatement.class, calls, ( name, args ) -> switch ( name ) {
+            case "executeUpdate" -> 1;
+            case "executeQuery" -> JdbcFakes.resultSet( new Object[]{7L, "fred"} );
+            default -> null;
+        } );
+    }
+}
@@ -0,0 +1,88 @@
+package org.litesoft.jdbctemplatehelper.support;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+    private static final String SQL = "SELECT id, name FROM things WHERE name = ?";
+
+    private long nanos;
+
+    private QueryResultCache.Builder builder() {
+        return QueryResultCache.builder().nanoClock( () -> nanos );
+    }
+
+    @Test
+    void hitMissAndTTL() {
+        QueryResultCache cache = builder().timeToLive( Duration.ofNanos( 100 ) ).build();
+        assertNull( cache.get( SQL, new Object[]{"a"} ) );
+        cache.put( cache.getGeneration(), SQL, new Object[]{"a"}, List.of( "A" ), 2 );
+        assertEquals( List.of( "A" ), cache.get( SQL, new Object[]{"a"} ) );
+        assertNull( cache.get( SQL, new Object[]{"b"} ) );
+        nanos += 100;
+        assertNull( cache.get( SQL, new Object[]{"a"} ) );
+
+        QueryResultCache.Stats stats = cache.getStats();
+        assertEquals( 1, stats.hits() );
+        assertEquals( 3, stats.misses() );
+        assertEquals( 1, stats.expirations() );
+        assertEquals( 0, stats.entries() );
+        assertEquals( 0, stats.estimatedBytes() );
+    }
+
+    @Test
+    void nullBinds() {
+        QueryResultCache cache = builder().build();
+        cache.put( cache.getGeneration(), SQL, new Object[]{null}, List.of(), 2 );
+        assertEquals( List.of(), cache.get( SQL, new Object[]{null} ) );
+    }
+
+    @Test
+    void arrayBinds() {
+        QueryResultCache cache = builder().build();
+        cache.put( cache.getGeneration(), SQL, new Object[]{new byte[]{1, 2}}, List.of( "A" ), 2 );
+        assertEquals( List.of( "A" ), cache.get( SQL, new Object[]{new byte[]{1, 2}} ) );
+        assertNull( cache.get( SQL, new Object[]{new byte[]{1, 3}} ) );
+    }
+
+    @Test
+    void boundedByEntries() {
+        QueryResultCache cache = builder().maxEntries( 2 ).build();
+        cache.put( cache.getGeneration(), SQL, new Object[]{"a"}, List.of( "A" ), 2 );
+        cache.put( cache.getGeneration(), SQL, new Object[]{"b"}, List.of( "B" ), 2 );
+        assertNotNull( cache.get( SQL, new Object[]{"a"} ) ); // "b" now LRU
+        cache.put( cache.getGeneration(), SQL, new Object[]{"c"}, List.of( "C" ), 2 );
+        assertNull( cache.get( SQL, new Object[]{"b"} ) );
+        assertNotNull( cache.get( SQL, new Object[]{"a"} ) );
+        assertNotNull( cache.get( SQL, new Object[]{"c"} ) );
+        assertEquals( 1, cache.getStats().evictions() );
+    }
+
+    @Test
+    void boundedByEstimatedBytes() {
+        QueryResultCache cache = builder().maxEstimatedBytes( 1000 ).estimatedBytesPerColumn( 100 ).build();
+        cache.put( cache.getGeneration(), SQL, new Object[]{"a"}, List.of( "A1", "A2", "A3", "A4" ), 2 ); // too big
+        assertNull( cache.get( SQL, new Object[]{"a"} ) );
+        cache.put( cache.getGeneration(), SQL, new Object[]{"b"}, List.of( "B" ), 2 );
+        cache.put( cache.getGeneration(), SQL, new Object[]{"c"}, List.of( "C" ), 2 );
+        cache.put( cache.getGeneration(), SQL, new Object[]{"d"}, List.of( "D" ), 2 );
+        assertNull( cache.get( SQL, new Object[]{"b"} ) );
+        assertTrue( cache.getStats().estimatedBytes() <= 1000 );
+    }
+
+    @Test
+    void invalidation() {
+        QueryResultCache cache = builder().build();
+        cache.put( cache.getGeneration(), SQL, new Object[]{"a"}, List.of( "A" ), 2 );
+        long inFlightGeneration = cache.getGeneration();
+        cache.invalidateAll();
+        assertNull( cache.get( SQL, new Object[]{"a"} ) );
+        cache.put( inFlightGeneration, SQL, new Object[]{"b"}, List.of( "B" ), 2 ); // stale -> not cached
+        assertNull( cache.get( SQL, new Object[]{"b"} ) );
+        assertEquals( 1, cache.getStats().invalidations() );
+    }
+}